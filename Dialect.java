@@ -0,0 +1,78 @@
+package com.cyitce.sqlbuilder;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className Dialect
+ * @description 数据库方言, 用于生成优化器提示
+ * @date 2026/10/19 15:20
+ */
+public enum Dialect {
+
+    /**
+     * MySQL 8, select和单表update的索引提示使用 use/force/ignore index, 其余使用优化器提示注释;
+     * 单表delete只能用INDEX()/NO_INDEX()优化器提示, 需要8.0.20及以上
+     */
+    MYSQL {
+        @Override
+        String fixedJoinOrder() {
+            return "JOIN_FIXED_ORDER()";
+        }
+
+        @Override
+        String maxExecutionTime(long millis) {
+            return "MAX_EXECUTION_TIME(" + millis + ")";
+        }
+    },
+
+    /**
+     * Oracle
+     */
+    ORACLE {
+        @Override
+        String fixedJoinOrder() {
+            return "ORDERED";
+        }
+    },
+
+    /**
+     * PostgreSQL, 需要安装 pg_hint_plan 扩展
+     */
+    POSTGRESQL {
+        @Override
+        String indexHint(String table, String[] indexes, boolean ignore) {
+            return (ignore ? "NoIndexScan(" : "IndexScan(") + table + (indexes.length > 0 ? " " + String.join(" ", indexes) : "") + ")";
+        }
+    };
+
+    /**
+     * 注释形式的索引提示
+     *
+     * @param table   表名或别名
+     * @param indexes 索引
+     * @param ignore  是否为忽略索引
+     * @return 提示内容
+     */
+    String indexHint(String table, String[] indexes, boolean ignore) {
+        return (ignore ? "NO_INDEX(" : "INDEX(") + table + (indexes.length > 0 ? " " + String.join(" ", indexes) : "") + ")";
+    }
+
+    /**
+     * 按from顺序连接
+     *
+     * @return 提示内容, 不支持时返回null
+     */
+    String fixedJoinOrder() {
+        return null;
+    }
+
+    /**
+     * 最大执行时间
+     *
+     * @param millis 毫秒
+     * @return 提示内容, 不支持时返回null
+     */
+    String maxExecutionTime(long millis) {
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.cyitce.sqlbuilder;
+
+import java.util.Objects;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className NamedParam
+ * @description 命名参数, 同名参数在namedSql中共用一个绑定位置
+ * @date 2026/10/19 17:10
+ */
+public final class NamedParam {
+
+    private final String name;
+    private final Object value;
+
+    NamedParam(String name, Object value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NamedParam)) {
+            return false;
+        }
+        NamedParam that = (NamedParam) o;
+        return name.equals(that.name) && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, value);
+    }
+
+    @Override
+    public String toString() {
+        return ":" + name + "=" + value;
+    }
+}
@@ -0,0 +1,189 @@
+package com.cyitce.sqlbuilder;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className Params
+ * @description 参数列表, 只保存实际值; 加入的命名参数拆开, 名称按下标另行记录
+ * @date 2026/10/19 19:40
+ */
+final class Params extends AbstractList<Object> implements RandomAccess {
+
+    private final List<Object> values;
+    /**
+     * 与参数一一对应的名称, 未命名为null; 没有命名参数时不创建
+     */
+    private List<String> names;
+
+    Params() {
+        values = new ArrayList<>();
+    }
+
+    Params(int capacity) {
+        values = new ArrayList<>(capacity);
+    }
+
+    @Override
+    public Object get(int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * 加入参数, 命名参数拆为值和名称
+     */
+    @Override
+    public void add(int index, Object param) {
+        String name = name(param);
+        values.add(index, value(param));
+        if (name != null && names == null) {
+            names = new ArrayList<>(Collections.nCopies(values.size() - 1, null));
+        }
+        if (names != null) {
+            names.add(index, name);
+        }
+        modCount++;
+    }
+
+    /**
+     * 替换参数, 传入非命名参数时该位置不再有名称
+     */
+    @Override
+    public Object set(int index, Object param) {
+        String name = name(param);
+        Object old = values.set(index, value(param));
+        if (name != null && names == null) {
+            names = new ArrayList<>(Collections.nCopies(values.size(), null));
+        }
+        if (names != null) {
+            names.set(index, name);
+        }
+        return old;
+    }
+
+    @Override
+    public Object remove(int index) {
+        Object old = values.remove(index);
+        if (names != null) {
+            names.remove(index);
+        }
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+        names = null;
+        modCount++;
+    }
+
+    /**
+     * 来源为Params时保留名称
+     */
+    @Override
+    public boolean addAll(Collection<?> params) {
+        if (params instanceof Params) {
+            Params source = (Params) params;
+            addRange(source, 0, source.size());
+            return !params.isEmpty();
+        }
+        return super.addAll(params);
+    }
+
+    /**
+     * 只转换值, 名称不变
+     */
+    @Override
+    public void replaceAll(UnaryOperator<Object> operator) {
+        values.replaceAll(operator);
+    }
+
+    /**
+     * 按值排序, 名称随值移动
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(Comparator<? super Object> comparator) {
+        if (names == null) {
+            values.sort(comparator);
+            modCount++;
+            return;
+        }
+        Integer[] order = new Integer[values.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> comparator == null
+                ? ((Comparable<Object>) values.get(a)).compareTo(values.get(b))
+                : comparator.compare(values.get(a), values.get(b)));
+        List<Object> sortedValues = new ArrayList<>(order.length);
+        List<String> sortedNames = new ArrayList<>(order.length);
+        for (Integer i : order) {
+            sortedValues.add(values.get(i));
+            sortedNames.add(names.get(i));
+        }
+        values.clear();
+        values.addAll(sortedValues);
+        names = sortedNames;
+        modCount++;
+    }
+
+    /**
+     * 复制source中[from, to)的参数及名称
+     */
+    void addRange(Params source, int from, int to) {
+        for (int i = from; i < to; i++) {
+            add(source.tagged(i));
+        }
+    }
+
+    /**
+     * 参数名称
+     *
+     * @param index 下标
+     * @return 名称, 未命名为null
+     */
+    String name(int index) {
+        return names == null ? null : names.get(index);
+    }
+
+    /**
+     * 命名参数重新包装为NamedParam, 其余原样返回
+     */
+    Object tagged(int index) {
+        String name = name(index);
+        return name == null ? get(index) : new NamedParam(name, get(index));
+    }
+
+    /**
+     * 带名称的参数列表, 用于需要移动参数位置的改写(如where优化), 结果再加入Params即可还原
+     *
+     * @return 参数列表
+     */
+    List<Object> tagged() {
+        if (names == null) {
+            return this;
+        }
+        List<Object> list = new ArrayList<>(size());
+        for (int i = 0, size = size(); i < size; i++) {
+            list.add(tagged(i));
+        }
+        return list;
+    }
+
+    private static String name(Object param) {
+        return param instanceof NamedParam ? ((NamedParam) param).getName() : null;
+    }
+
+    private static Object value(Object param) {
+        return param instanceof NamedParam ? ((NamedParam) param).getValue() : param;
+    }
+}
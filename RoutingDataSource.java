@@ -0,0 +1,253 @@
+package com.cyitce.sqlbuilder;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Logger;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className RoutingDataSource
+ * @description 读写分离数据源, 只读语句发往从库, 写语句及写后一段时间内的读发往主库
+ * @date 2026/10/19 17:50
+ */
+public class RoutingDataSource implements DataSource {
+
+    /**
+     * 从库选择策略
+     */
+    public enum Balance {
+        /**
+         * 轮询
+         */
+        ROUND_ROBIN,
+        /**
+         * 数据库往返时间最短, 由定期的Connection.isValid()测得
+         */
+        LEAST_LATENCY
+    }
+
+    /**
+     * 从库获取连接失败后暂停使用的时间
+     */
+    private final static long RETRY_NANOS = TimeUnit.SECONDS.toNanos(5);
+    /**
+     * LEAST_LATENCY下每个从库测量往返时间的最小间隔及超时
+     */
+    private final static long PROBE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private final static int PROBE_TIMEOUT_SECONDS = 5;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final Balance balance;
+    private final long stickyNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    /**
+     * 各从库往返时间的指数移动平均(纳秒)
+     */
+    private final AtomicLongArray latency;
+    /**
+     * 各从库最近一次测量往返时间的时间(System.nanoTime)
+     */
+    private final AtomicLongArray probedAt;
+    /**
+     * 各从库获取连接失败后, 到该时间(System.nanoTime)之前不再尝试
+     */
+    private final AtomicLongArray retryAt;
+    /**
+     * 当前线程最近一次写操作的时间
+     */
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    /**
+     * @param primary      主库
+     * @param replicas     从库
+     * @param balance      从库选择策略
+     * @param stickyMillis 写操作后该线程的读继续走主库的时间
+     */
+    public RoutingDataSource(DataSource primary, List<DataSource> replicas, Balance balance, long stickyMillis) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.balance = balance;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMillis);
+        this.latency = new AtomicLongArray(this.replicas.size());
+        this.retryAt = new AtomicLongArray(this.replicas.size());
+        this.probedAt = new AtomicLongArray(this.replicas.size());
+    }
+
+    /**
+     * 根据语句类型获取连接
+     *
+     * @param sqlBuilder 将要执行的语句
+     * @return 连接
+     * @throws SQLException 获取失败
+     */
+    public Connection getConnection(SqlBuilder sqlBuilder) throws SQLException {
+        return getConnection(sqlBuilder.isReadOnly());
+    }
+
+    /**
+     * 获取连接
+     *
+     * @param readOnly 是否只执行只读语句
+     * @return 连接
+     * @throws SQLException 获取失败
+     */
+    public Connection getConnection(boolean readOnly) throws SQLException {
+        if (!readOnly) {
+            markWrite();
+            return primary.getConnection();
+        }
+        Long written = lastWrite.get();
+        if (replicas.isEmpty() || written != null && System.nanoTime() - written < stickyNanos) {
+            return primary.getConnection();
+        }
+        int start = choose();
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            if (!available(index)) {
+                continue;
+            }
+            Connection connection = null;
+            try {
+                connection = replicas.get(index).getConnection();
+                if (probe(index, connection)) {
+                    return connection;
+                }
+            } catch (SQLException e) {
+                // 获取或校验失败均视为不可用
+            }
+            // 从库不可用时暂停使用一段时间并尝试下一个, 全部失败再用主库
+            close(connection);
+            retryAt.set(index, System.nanoTime() + RETRY_NANOS);
+            latency.set(index, 0);
+            probedAt.set(index, 0);
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * 标记当前线程刚执行过写操作, 之后的读在窗口期内走主库
+     */
+    public void markWrite() {
+        if (stickyNanos > 0) {
+            lastWrite.set(System.nanoTime());
+        }
+    }
+
+    private int choose() {
+        if (balance == Balance.LEAST_LATENCY) {
+            int best = -1;
+            for (int i = 0; i < replicas.size(); i++) {
+                if (!available(i)) {
+                    continue;
+                }
+                if (best < 0 || latency.get(i) < latency.get(best)) {
+                    best = i;
+                }
+            }
+            return Math.max(best, 0);
+        }
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    /**
+     * 从库是否不在失败后的暂停期内
+     */
+    private boolean available(int index) {
+        long at = retryAt.get(index);
+        return at == 0 || System.nanoTime() - at >= 0;
+    }
+
+    /**
+     * LEAST_LATENCY下每个从库每隔PROBE_NANOS用刚取得的连接做一次isValid(), 以其耗时更新往返时间;
+     * 与连接池分配连接的耗时和调用方持有连接的时间无关
+     *
+     * @return 连接是否可用
+     */
+    private boolean probe(int index, Connection connection) throws SQLException {
+        if (balance != Balance.LEAST_LATENCY) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long last = probedAt.get(index);
+        if (last != 0 && now - last < PROBE_NANOS || !probedAt.compareAndSet(index, last, now)) {
+            return true;
+        }
+        if (!connection.isValid(PROBE_TIMEOUT_SECONDS)) {
+            return false;
+        }
+        long elapsed = Math.max(System.nanoTime() - now, 1);
+        latency.getAndUpdate(index, old -> old == 0 ? elapsed : old - (old >> 3) + (elapsed >> 3));
+        return true;
+    }
+
+    private static void close(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 未指定语句时使用主库, 但不标记写操作, 以免通过标准接口取连接的框架让该线程在窗口期内一直读主库;
+     * 经此连接写入后需要读到最新数据时, 调用markWrite()或使用getConnection(false)
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return primary.getConnection();
+    }
+
+    /**
+     * 使用主库, 不标记写操作
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cyitce.sqlbuilder;
+
+import java.util.List;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlBinder
+ * @description 实体绑定, 按固定列顺序直接从getter取值, 通常由SqlEntityProcessor生成
+ * @date 2026/10/19 16:20
+ */
+public interface SqlBinder<T> {
+
+    /**
+     * 表名
+     *
+     * @return 表名
+     */
+    String table();
+
+    /**
+     * 列名, 顺序与bind一致
+     *
+     * @return 列名
+     */
+    String[] columns();
+
+    /**
+     * 按列顺序把实体的值追加到参数列表
+     *
+     * @param entity 实体
+     * @param params 参数列表
+     */
+    void bind(T entity, List<Object> params);
+}
@@ -1,5 +1,7 @@
 package com.cyitce.sqlbuilder;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.*;
 
 /**
@@ -14,17 +16,63 @@ public class SqlBuilder {
     private final static String OR = " or ";
     private final static String AND = " and ";
     private final static String SP = " ";
+    private final static long FNV_OFFSET = 0xcbf29ce484222325L;
+    private final static long FNV_PRIME = 0x100000001b3L;
 
     private final StringBuilder sql;
-    private final List<Object> params;
+    private final Params params;
+    private final Dialect dialect;
+
+    /**
+     * select字段在sql中的起止位置及参数区间, 用于生成count语句
+     */
+    private int projectionStart = -1;
+    private int projectionEnd = -1;
+    private int projectionParamStart = 0;
+    private int projectionParamEnd = 0;
+
+    /**
+     * 优化器提示注释的插入位置, 当前内容及长度
+     */
+    private int hintStart = -1;
+    private final StringBuilder hints = new StringBuilder();
+    private int hintLength = 0;
+
+    /**
+     * 最近一次from的表(别名)及其在sql中的结束位置, 用于索引提示
+     */
+    private String table;
+    private int tableEnd = -1;
+
+    /**
+     * as()的次数, 最近一次as()后sql的长度及被包裹语句的结束位置, 用于count()取出内层语句
+     */
+    private int aliases = 0;
+    private int aliasEnd = -1;
+    private int aliasInnerEnd = -1;
+
+    /**
+     * 语句指纹, 在sql()中计算; 创建位置仅在开启采样时记录
+     */
+    private long fingerprint;
+    private final String callSite = SqlSampler.callSite();
 
     public SqlBuilder() {
         this(new StringBuilder());
     }
 
+    public SqlBuilder(Dialect dialect) {
+        this(new StringBuilder(), dialect);
+    }
+
     public SqlBuilder(StringBuilder sql) {
+        this(sql, Dialect.MYSQL);
+    }
+
+    public SqlBuilder(StringBuilder sql, Dialect dialect) {
         this.sql = sql;
-        this.params = new ArrayList<>();
+        this.params = new Params();
+        this.dialect = dialect;
     }
 
     public static boolean isBlank(CharSequence var0) {
@@ -71,12 +119,103 @@ public class SqlBuilder {
      * @return SqlBuilder
      */
     public SqlBuilder append(CharSequence sql, Object... params) {
-        this.sql.append(SP).append(sql).append(SP);
+        this.sql.append(SP).append(expandNamed(sql, params, this.params)).append(SP);
+        return this;
+    }
+
+    /**
+     * 命名参数, 可作为任意参数值使用; append时sql中的 :name 会替换为对应的参数
+     *
+     * @param name  参数名
+     * @param value 值
+     * @return 命名参数
+     */
+    public static NamedParam named(String name, Object value) {
+        return new NamedParam(name, value);
+    }
+
+    /**
+     * 把sql中的 :name 展开为 ? 并按出现顺序加入参数, 没有命名参数时原样返回;
+     * 有命名参数时 :name 和 ? 必须都有对应参数, 参数也必须全部用到
+     *
+     * @param sql    sql语句
+     * @param params 参数, 命名参数按名称匹配, 其余按 ? 顺序匹配
+     * @param out    参数列表
+     * @return 展开后的sql
+     */
+    private static CharSequence expandNamed(CharSequence sql, Object[] params, List<Object> out) {
         //校验参数不为空
-        if (params != null) {
-            this.params.addAll(Arrays.asList(params));
+        if (params == null) {
+            return sql;
         }
-        return this;
+        Map<String, NamedParam> named = null;
+        for (Object param : params) {
+            if (param instanceof NamedParam) {
+                if (named == null) {
+                    named = new HashMap<>();
+                }
+                named.put(((NamedParam) param).getName(), (NamedParam) param);
+            }
+        }
+        if (named == null) {
+            out.addAll(Arrays.asList(params));
+            return sql;
+        }
+        StringBuilder sb = new StringBuilder(sql.length());
+        Set<String> used = new HashSet<>();
+        List<Object> expanded = new ArrayList<>();
+        int positional = 0;
+        for (int i = 0, len = sql.length(); i < len; i++) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = i + 1;
+                while (end < len && sql.charAt(end) != c) {
+                    end++;
+                }
+                end = Math.min(end, len - 1);
+                sb.append(sql, i, end + 1);
+                i = end;
+                continue;
+            }
+            if (c == '?') {
+                while (positional < params.length && params[positional] instanceof NamedParam) {
+                    positional++;
+                }
+                if (positional >= params.length) {
+                    throw new IllegalArgumentException("no param for ? at " + i + ": " + sql);
+                }
+                expanded.add(params[positional++]);
+            } else if (c == ':' && i + 1 < len && Character.isJavaIdentifierStart(sql.charAt(i + 1))
+                    && (i == 0 || sql.charAt(i - 1) != ':')) {
+                int end = i + 1;
+                while (end < len && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                String name = sql.subSequence(i + 1, end).toString();
+                NamedParam param = named.get(name);
+                if (param == null) {
+                    throw new IllegalArgumentException("no param for :" + name + ": " + sql);
+                }
+                used.add(name);
+                sb.append('?');
+                expanded.add(param);
+                i = end - 1;
+                continue;
+            }
+            sb.append(c);
+        }
+        while (positional < params.length && params[positional] instanceof NamedParam) {
+            positional++;
+        }
+        if (positional < params.length) {
+            throw new IllegalArgumentException("unused param " + params[positional] + ": " + sql);
+        }
+        if (used.size() < named.size()) {
+            named.keySet().removeAll(used);
+            throw new IllegalArgumentException("unused named param :" + named.keySet().iterator().next() + ": " + sql);
+        }
+        out.addAll(expanded);
+        return sb;
     }
 
     /**
@@ -113,7 +252,169 @@ public class SqlBuilder {
      * @return sql语句
      */
     public String sql() {
-        return sql.toString().trim().replaceAll("\\s+", SP);
+        int len = sql.length();
+        StringBuilder out = new StringBuilder(len);
+        long hash = FNV_OFFSET;
+        boolean space = false;
+        char quote = 0;
+        char last = 0;
+        boolean comma = false;
+        boolean number = false;
+        for (int i = 0; i < len; i++) {
+            char c = sql.charAt(i);
+            if (isSpace(c)) {
+                space = out.length() > 0;
+                continue;
+            }
+            if (space) {
+                out.append(' ');
+                space = false;
+            }
+            out.append(c);
+            // 指纹: 忽略空白, 字面量和数字替换为?, 连续的 ?,? 合并为一个 ?
+            char h;
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            } else if (c == '\'' || c == '"' && dialect == Dialect.MYSQL) {
+                quote = c;
+                h = '?';
+            } else if (number && (c >= '0' && c <= '9' || c == '.')) {
+                continue;
+            } else if (c >= '0' && c <= '9' && (out.length() == 1 || !isWordChar(out.charAt(out.length() - 2)))) {
+                number = true;
+                h = '?';
+            } else {
+                number = false;
+                h = Character.toLowerCase(c);
+            }
+            if (h == ',' && last == '?') {
+                comma = true;
+                continue;
+            }
+            if (comma) {
+                comma = false;
+                if (h == '?') {
+                    continue;
+                }
+                hash = (hash ^ ',') * FNV_PRIME;
+            }
+            if (h == '?' && last == '?') {
+                continue;
+            }
+            hash = (hash ^ h) * FNV_PRIME;
+            last = h;
+        }
+        if (comma) {
+            hash = (hash ^ ',') * FNV_PRIME;
+        }
+        fingerprint = hash;
+        return out.toString();
+    }
+
+    /**
+     * 是否为只读语句, 用于读写分离
+     *
+     * @return 是否只读
+     */
+    public boolean isReadOnly() {
+        return isReadOnly(sql, dialect);
+    }
+
+    /**
+     * 按MySQL语法判断sql是否只读
+     *
+     * @param sql sql语句
+     * @return 是否只读
+     * @see #isReadOnly(CharSequence, Dialect)
+     */
+    public static boolean isReadOnly(CharSequence sql) {
+        return isReadOnly(sql, Dialect.MYSQL);
+    }
+
+    /**
+     * 判断sql是否只读: select/show/explain/describe且不含 for update/for share/lock/into,
+     * with和explain中不含insert/update/delete/merge, 分号后还有语句时视为多条语句, 其余均视为写语句;
+     * # 仅在MySQL中作为注释, 其他数据库中为运算符
+     *
+     * @param sql     sql语句
+     * @param dialect 数据库类型
+     * @return 是否只读
+     */
+    public static boolean isReadOnly(CharSequence sql, Dialect dialect) {
+        String first = null;
+        String prev = null;
+        boolean ended = false;
+        for (int i = 0, len = sql.length(); i < len; i++) {
+            char c = sql.charAt(i);
+            if (c == '/' && i + 1 < len && sql.charAt(i + 1) == '*') {
+                int end = sql.toString().indexOf("*/", i + 2);
+                i = end < 0 ? len : end + 1;
+            } else if (c == '-' && i + 1 < len && sql.charAt(i + 1) == '-' || c == '#' && dialect == Dialect.MYSQL) {
+                while (i < len && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (isSpace(c)) {
+                // 空白
+            } else if (ended) {
+                // 分号后的第二条语句
+                return false;
+            } else if (c == ';') {
+                ended = true;
+            } else if (c == '\'' || c == '"' || c == '`') {
+                while (++i < len && sql.charAt(i) != c) {
+                    // 跳过引号内容
+                }
+            } else if (Character.isLetter(c)) {
+                int start = i;
+                while (i + 1 < len && isWordChar(sql.charAt(i + 1))) {
+                    i++;
+                }
+                String word = sql.subSequence(start, i + 1).toString().toLowerCase();
+                if (first == null) {
+                    first = word;
+                    if (!"select".equals(first) && !"with".equals(first) && !"show".equals(first)
+                            && !"explain".equals(first) && !"describe".equals(first) && !"desc".equals(first)) {
+                        return false;
+                    }
+                } else if ("insert".equals(word) || "delete".equals(word) || "merge".equals(word)
+                        || "update".equals(word) || "lock".equals(word) || "into".equals(word)
+                        || "share".equals(word) && "for".equals(prev)) {
+                    return false;
+                }
+                prev = word;
+            }
+        }
+        return first != null;
+    }
+
+    /**
+     * 语句指纹, 相同结构(in列表长度, 字面量不同)的语句指纹相同
+     *
+     * @return 指纹
+     */
+    public long fingerprint() {
+        sql();
+        return fingerprint;
+    }
+
+    /**
+     * 创建语句的代码位置, 未开启采样时为null
+     *
+     * @return 代码位置
+     */
+    public String callSite() {
+        return callSite;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
     }
 
     /**
@@ -125,6 +426,80 @@ public class SqlBuilder {
         return params;
     }
 
+    /**
+     * 绑定参数到预编译语句, SqlLob参数以流的方式绑定, 执行后可用SqlLob.closeAll(params())关闭
+     *
+     * @param statement 预编译语句
+     * @throws SQLException 绑定失败
+     */
+    public void bind(PreparedStatement statement) throws SQLException {
+        bind(statement, params);
+    }
+
+    static void bind(PreparedStatement statement, List<Object> params) throws SQLException {
+        for (int i = 0, size = params.size(); i < size; i++) {
+            Object value = params.get(i);
+            if (value instanceof SqlLob) {
+                ((SqlLob) value).bind(statement, i + 1);
+            } else {
+                statement.setObject(i + 1, value);
+            }
+        }
+    }
+
+    /**
+     * 命名参数形式的sql, 同名参数共用一个 :name, 其余参数依次命名为 :p1, :p2...
+     * 用于支持命名绑定的驱动或框架, 不支持时使用sql()和params()
+     *
+     * @return sql语句
+     */
+    public String namedSql() {
+        return named(null);
+    }
+
+    /**
+     * namedSql()对应的参数, 每个名称只出现一次
+     *
+     * @return 参数名-值
+     */
+    public Map<String, Object> namedParams() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        named(map);
+        return map;
+    }
+
+    private String named(Map<String, Object> map) {
+        String s = sql();
+        StringBuilder sb = new StringBuilder(s.length() + params.size() * 4);
+        int index = 0;
+        int positional = 0;
+        for (int i = 0, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = s.indexOf(c, i + 1);
+                end = end < 0 ? len - 1 : end;
+                sb.append(s, i, end + 1);
+                i = end;
+            } else if (c == '?' && index < params.size()) {
+                String name = params.name(index);
+                Object value = params.get(index++);
+                if (name == null) {
+                    name = "p" + (++positional);
+                }
+                if (map != null) {
+                    if (map.containsKey(name) && !Objects.equals(map.get(name), value)) {
+                        throw new IllegalStateException("named param :" + name + " bound to different values");
+                    }
+                    map.put(name, value);
+                }
+                sb.append(':').append(name);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
     /**
      * 字符拼接
      *
@@ -151,10 +526,179 @@ public class SqlBuilder {
      * @return SqlBuilder
      */
     public SqlBuilder as(String name) {
-        sql.insert(0, "(").append(") as ").append(name);
+        sql.insert(0, "(");
+        aliasInnerEnd = sql.length();
+        sql.append(") as ").append(name);
+        aliases++;
+        aliasEnd = sql.length();
+        projectionStart = -1;
+        if (hintStart >= 0) {
+            hintStart++;
+        }
+        if (tableEnd >= 0) {
+            tableEnd++;
+        }
         return this;
     }
 
+    /**
+     * 生成count语句, 去除末尾的order by/limit, 不修改当前语句
+     * <p>
+     * 简单查询直接把select字段替换为count(*), 含distinct/group by/having/union/函数字段时包裹为子查询;
+     * 最后一次调用为as()时统计被包裹的语句
+     *
+     * @return count语句
+     * @throws IllegalStateException as()之后又拼接了内容或多次as()
+     */
+    public SqlBuilder count() {
+        String s = sql.toString();
+        if (aliases > 0) {
+            if (aliases > 1 || aliasEnd != sql.length()) {
+                throw new IllegalStateException("count() only supports a statement whose last call was a single as()");
+            }
+            // 别名只用于作为子查询, count取内层语句
+            s = s.substring(1, aliasInnerEnd);
+        }
+        int tail = indexOfTopLevel(s, 0, "order", "limit", "offset", "fetch");
+        if (tail < 0) {
+            tail = s.length();
+        }
+        int bodyParams = params.size() - countParams(s, tail, s.length());
+        SqlBuilder count = new SqlBuilder(dialect);
+        int bracket = s.indexOf('(', projectionStart);
+        boolean simple = projectionStart >= 0 && projectionEnd >= 0 && projectionEnd <= tail
+                && (bracket < 0 || bracket >= projectionEnd)
+                && indexOfTopLevel(s, projectionStart, "distinct", "group", "having") < 0
+                && indexOfTopLevel(s, 0, "union", "intersect", "except") < 0;
+        if (simple) {
+            count.sql.append(s, 0, projectionStart).append("count(*) ").append(s, projectionEnd, tail);
+            count.params.addRange(params, 0, projectionParamStart);
+            count.params.addRange(params, projectionParamEnd, bodyParams);
+        } else {
+            // Oracle的表别名前不能有as
+            count.sql.append("select count(*) from (").append(s, 0, tail).append(dialect == Dialect.ORACLE ? ") t" : ") as t");
+            count.params.addRange(params, 0, bodyParams);
+        }
+        return count;
+    }
+
+    /**
+     * 新语句开始, 提示插入到当前位置, 清除上一条语句的提示和表
+     *
+     * @param table 语句的表(别名), select在from时确定
+     */
+    private void startHints(String table) {
+        hintStart = sql.length();
+        hints.setLength(0);
+        hintLength = 0;
+        this.table = table;
+        tableEnd = -1;
+    }
+
+    /**
+     * 添加优化器提示, 同一语句的提示合并到紧跟关键字之后的一个注释中
+     *
+     * @param hint 提示内容
+     */
+    private void hint(String hint) {
+        if (hintStart < 0 || isBlank(hint)) {
+            return;
+        }
+        if (hints.length() > 0) {
+            hints.append(SP);
+        }
+        hints.append(hint);
+        String comment = "/*+ " + hints + " */ ";
+        sql.replace(hintStart, hintStart + hintLength, comment);
+        int delta = comment.length() - hintLength;
+        hintLength = comment.length();
+        if (projectionStart >= hintStart) {
+            projectionStart += delta;
+        }
+        if (projectionEnd >= hintStart) {
+            projectionEnd += delta;
+        }
+        if (tableEnd >= hintStart) {
+            tableEnd += delta;
+        }
+    }
+
+    /**
+     * 索引提示, MySQL的select/update紧跟在表之后, 其余使用优化器提示注释
+     *
+     * @param keyword MySQL索引提示关键字 use/force/ignore
+     * @param indexes 索引
+     */
+    private void indexHint(String keyword, String... indexes) {
+        if (table == null) {
+            return;
+        }
+        if (dialect == Dialect.MYSQL && tableEnd >= 0) {
+            String hint = SP + keyword + " index (" + String.join(",", indexes) + ")";
+            sql.insert(tableEnd, hint);
+            tableEnd += hint.length();
+        } else {
+            hint(dialect.indexHint(table, indexes, "ignore".equals(keyword)));
+        }
+    }
+
+    /**
+     * 表的引用名, 有别名时取别名
+     */
+    private static String alias(String table) {
+        String[] parts = table.trim().split("\\s+");
+        return parts[parts.length - 1];
+    }
+
+    /**
+     * 查找括号和引号之外第一个出现的关键字
+     *
+     * @param s     sql语句
+     * @param from  开始位置
+     * @param words 关键字
+     * @return 位置, 不存在返回-1
+     */
+    private static int indexOfTopLevel(String s, int from, String... words) {
+        int depth = 0;
+        for (int i = from, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = s.indexOf(c, i + 1);
+                i = end < 0 ? len : end;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && Character.isLetter(c) && (i == 0 || !Character.isLetterOrDigit(s.charAt(i - 1)) && s.charAt(i - 1) != '_')) {
+                for (String word : words) {
+                    int end = i + word.length();
+                    if (s.regionMatches(true, i, word, 0, word.length())
+                            && (end == len || !Character.isLetterOrDigit(s.charAt(end)) && s.charAt(end) != '_')) {
+                        return i;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 统计引号之外的参数占位符数量
+     */
+    private static int countParams(String s, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = s.indexOf(c, i + 1);
+                i = end < 0 ? to : end;
+            } else if (c == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * update语句
      *
@@ -191,22 +735,103 @@ public class SqlBuilder {
     public class SelectSql extends Common<SelectSql> {
 
         private boolean flag = false;
+        private boolean from = false;
 
         public SelectSql(String... columns) {
             if (columns.length > 0) {
                 flag = true;
             }
-            sql.append("select ").append(join(",", columns));
+            sql.append("select ");
+            startHints(null);
+            projectionStart = sql.length();
+            projectionEnd = -1;
+            projectionParamStart = params.size();
+            sql.append(join(",", columns));
         }
 
         /**
-         * from
+         * from, 多次调用时以逗号连接
          *
          * @param tables 表
          * @return SqlBuilder
          */
         public SelectSql from(String... tables) {
-            sql.append(" from ").append(join(",", tables)).append(SP);
+            if (projectionStart >= 0 && projectionEnd < 0) {
+                projectionEnd = sql.length();
+                projectionParamEnd = params.size();
+            }
+            sql.append(from ? ", " : " from ").append(join(",", tables));
+            if (tables.length > 0) {
+                table = alias(tables[tables.length - 1]);
+                tableEnd = sql.length() - 1;
+            }
+            sql.append(SP);
+            from = true;
+            return this;
+        }
+
+        /**
+         * 优化器提示, 放在select之后的注释中
+         *
+         * @param hint 提示内容, 如 NO_RANGE_OPTIMIZATION(t)
+         * @return SelectSql
+         */
+        public SelectSql hint(String hint) {
+            SqlBuilder.this.hint(hint);
+            return this;
+        }
+
+        /**
+         * 为最近一次from的最后一个表指定索引
+         *
+         * @param indexes 索引
+         * @return SelectSql
+         */
+        public SelectSql useIndex(String... indexes) {
+            indexHint("use", indexes);
+            return this;
+        }
+
+        /**
+         * 为最近一次from的最后一个表强制使用索引
+         *
+         * @param indexes 索引
+         * @return SelectSql
+         */
+        public SelectSql forceIndex(String... indexes) {
+            indexHint("force", indexes);
+            return this;
+        }
+
+        /**
+         * 为最近一次from的最后一个表忽略索引
+         *
+         * @param indexes 索引
+         * @return SelectSql
+         */
+        public SelectSql ignoreIndex(String... indexes) {
+            indexHint("ignore", indexes);
+            return this;
+        }
+
+        /**
+         * 按from顺序连接表, PostgreSQL不支持时忽略
+         *
+         * @return SelectSql
+         */
+        public SelectSql straightJoin() {
+            SqlBuilder.this.hint(dialect.fixedJoinOrder());
+            return this;
+        }
+
+        /**
+         * 最大执行时间, 仅MySQL支持, 其余方言忽略
+         *
+         * @param millis 毫秒
+         * @return SelectSql
+         */
+        public SelectSql maxExecutionTime(long millis) {
+            SqlBuilder.this.hint(dialect.maxExecutionTime(millis));
             return this;
         }
 
@@ -262,21 +887,47 @@ public class SqlBuilder {
     public class WhereSql extends Common<WhereSql> {
 
         private final StringBuilder sql;
-        private final List<Object> params = new ArrayList<>();
+        private final Params params = new Params();
         private int flag = 0;
+        private boolean optimize = false;
+        /**
+         * 最近一次and/or的起止位置, 条件被跳过时据此移除
+         */
+        private int connectorStart = -1;
+        private int connectorEnd = -1;
+        /**
+         * 未闭合的括号: 起始位置(含之前紧邻的and/or), 括号外的条件数, 括号位置
+         */
+        private final Deque<int[]> groups = new ArrayDeque<>();
 
         public WhereSql() {
             sql = new StringBuilder();
         }
 
+        /**
+         * 结束时改写条件: 去除重复条件, 同字段or等值合并为in, 去除空括号和多余括号
+         *
+         * @return WhereSql
+         */
+        public WhereSql optimize() {
+            optimize = true;
+            return this;
+        }
+
         /**
          * and
          *
          * @return WhereSql
          */
         public WhereSql and() {
+            return connect(AND);
+        }
+
+        private WhereSql connect(String connector) {
             if (flag > 0) {
-                sql.append(AND);
+                connectorStart = sql.length();
+                sql.append(connector);
+                connectorEnd = sql.length();
             }
             return this;
         }
@@ -349,10 +1000,7 @@ public class SqlBuilder {
          * @return WhereSql
          */
         public WhereSql or() {
-            if (flag > 0) {
-                sql.append(OR);
-            }
-            return this;
+            return connect(OR);
         }
 
         /**
@@ -446,6 +1094,33 @@ public class SqlBuilder {
             return this;
         }
 
+        /**
+         * 按实体所有列等值比较, 以and连接
+         *
+         * @param binder 实体绑定
+         * @param entity 实体
+         * @param <E>    实体类型
+         * @return WhereSql
+         */
+        public <E> WhereSql eq(SqlBinder<E> binder, E entity) {
+            String[] columns = binder.columns();
+            if (entity == null || columns.length == 0) {
+                back();
+                return this;
+            }
+            sql.append(" (");
+            for (int i = 0; i < columns.length; i++) {
+                sql.append(columns[i]).append("=? ");
+                if (i < columns.length - 1) {
+                    sql.append(AND);
+                }
+                flag++;
+            }
+            sql.append(") ");
+            binder.bind(entity, this.params);
+            return this;
+        }
+
         /**
          * 字符串模糊匹配
          *
@@ -612,20 +1287,26 @@ public class SqlBuilder {
          */
         public SqlBuilder end() {
             String whereSql = sql.toString().trim();
+            Params whereParams = params;
+            if (optimize) {
+                whereParams = new Params(params.size());
+                whereSql = SqlOptimizer.where(whereSql, params.tagged(), whereParams);
+            }
             if (isNotBlank(whereSql)) {
                 SqlBuilder.this.sql.append(" where ").append(whereSql);
-                SqlBuilder.this.params.addAll(params);
+                SqlBuilder.this.params.addAll(whereParams);
             }
             return SqlBuilder.this;
         }
 
         /**
-         * 返回之前的状态，移除and,or,where
+         * 返回之前的状态，移除紧邻的and,or
          */
         private void back() {
-            if (flag > 0) {
-                sql.deleteCharAt(sql.length() - 1).delete(sql.lastIndexOf(SP), sql.length());
+            if (connectorEnd >= 0 && connectorEnd == sql.length()) {
+                sql.setLength(connectorStart);
             }
+            connectorEnd = -1;
         }
 
         @Override
@@ -637,8 +1318,7 @@ public class SqlBuilder {
 
         @Override
         public WhereSql append(CharSequence sql, Object... params) {
-            this.sql.append(sql);
-            this.params.addAll(Arrays.asList(params));
+            this.sql.append(expandNamed(sql, params, this.params));
             return this;
         }
 
@@ -649,15 +1329,41 @@ public class SqlBuilder {
             return this;
         }
 
+        /**
+         * 左括号, 括号内重新计数条件
+         *
+         * @return WhereSql
+         */
         @Override
         public WhereSql lb() {
+            int start = connectorEnd == sql.length() ? connectorStart : sql.length();
+            groups.push(new int[]{start, flag, sql.length()});
             sql.append("(");
+            flag = 0;
+            connectorEnd = -1;
             return this;
         }
 
+        /**
+         * 右括号, 括号内没有条件时连同括号前的and,or一起移除
+         *
+         * @return WhereSql
+         */
         @Override
         public WhereSql rb() {
-            sql.append(")");
+            if (groups.isEmpty()) {
+                sql.append(")");
+                return this;
+            }
+            int[] group = groups.pop();
+            back();
+            if (isBlank(sql.subSequence(group[2] + 1, sql.length()))) {
+                sql.setLength(group[0]);
+                flag = group[1];
+            } else {
+                sql.append(")");
+                flag = group[1] + 1;
+            }
             return this;
         }
     }
@@ -670,7 +1376,45 @@ public class SqlBuilder {
         private boolean flag = false;
 
         public UpdateSql(String table) {
-            sql.append("update ").append(table).append(SP);
+            sql.append("update ");
+            startHints(alias(table));
+            sql.append(table);
+            // MySQL单表update的索引提示紧跟在表之后
+            tableEnd = sql.length();
+            sql.append(SP);
+        }
+
+        /**
+         * 优化器提示, 放在update之后的注释中
+         *
+         * @param hint 提示内容
+         * @return UpdateSql
+         */
+        public UpdateSql hint(String hint) {
+            SqlBuilder.this.hint(hint);
+            return this;
+        }
+
+        /**
+         * 指定索引
+         *
+         * @param indexes 索引
+         * @return UpdateSql
+         */
+        public UpdateSql useIndex(String... indexes) {
+            indexHint("use", indexes);
+            return this;
+        }
+
+        /**
+         * 忽略索引
+         *
+         * @param indexes 索引
+         * @return UpdateSql
+         */
+        public UpdateSql ignoreIndex(String... indexes) {
+            indexHint("ignore", indexes);
+            return this;
         }
 
         /**
@@ -710,6 +1454,26 @@ public class SqlBuilder {
             return this;
         }
 
+        /**
+         * set, 按实体所有列赋值
+         *
+         * @param binder 实体绑定
+         * @param entity 实体
+         * @param <E>    实体类型
+         * @return UpdateSql
+         */
+        public <E> UpdateSql set(SqlBinder<E> binder, E entity) {
+            if (entity == null) {
+                return this;
+            }
+            for (String column : binder.columns()) {
+                sql.append(flag ? ", " : " set ").append(column).append("=? ");
+                flag = true;
+            }
+            binder.bind(entity, params);
+            return this;
+        }
+
         /**
          * where
          *
@@ -736,7 +1500,42 @@ public class SqlBuilder {
     public class DeleteSql extends Common<DeleteSql> {
 
         public DeleteSql(String table) {
-            sql.append("delete from ").append(table).append(SP);
+            sql.append("delete ");
+            startHints(alias(table));
+            sql.append("from ").append(table).append(SP);
+        }
+
+        /**
+         * 优化器提示, 放在delete之后的注释中
+         *
+         * @param hint 提示内容
+         * @return DeleteSql
+         */
+        public DeleteSql hint(String hint) {
+            SqlBuilder.this.hint(hint);
+            return this;
+        }
+
+        /**
+         * 指定索引, MySQL单表delete不支持use index, 使用INDEX()优化器提示, 需要8.0.20及以上
+         *
+         * @param indexes 索引
+         * @return DeleteSql
+         */
+        public DeleteSql useIndex(String... indexes) {
+            indexHint("use", indexes);
+            return this;
+        }
+
+        /**
+         * 忽略索引, MySQL单表delete不支持ignore index, 使用NO_INDEX()优化器提示, 需要8.0.20及以上
+         *
+         * @param indexes 索引
+         * @return DeleteSql
+         */
+        public DeleteSql ignoreIndex(String... indexes) {
+            indexHint("ignore", indexes);
+            return this;
         }
 
         public WhereSql where() {
@@ -749,6 +1548,12 @@ public class SqlBuilder {
      */
     public class InsertSql extends Common<InsertSql> {
         private final Map<String, Object> map;
+        /**
+         * 实体绑定的列及按行连续存放的值
+         */
+        private String[] columns;
+        private final List<Object> values = new ArrayList<>();
+        private int rows = 0;
 
         public InsertSql(String table) {
             map = new HashMap<>();
@@ -778,12 +1583,50 @@ public class SqlBuilder {
             return this;
         }
 
+        /**
+         * add, 添加一行实体, 多次调用生成多行values, 各行的列必须相同; 通过add(key, value)添加的列作为每行相同的值
+         *
+         * @param binder 实体绑定
+         * @param entity 实体
+         * @param <E>    实体类型
+         * @return InsertSql
+         */
+        public <E> InsertSql add(SqlBinder<E> binder, E entity) {
+            if (columns == null) {
+                columns = binder.columns();
+            } else if (!Arrays.equals(columns, binder.columns())) {
+                throw new IllegalArgumentException("binder columns " + Arrays.toString(binder.columns())
+                        + " differ from " + Arrays.toString(columns));
+            }
+            binder.bind(entity, values);
+            rows++;
+            return this;
+        }
+
+        /**
+         * add, 批量添加实体
+         *
+         * @param binder   实体绑定
+         * @param entities 实体列表
+         * @param <E>      实体类型
+         * @return InsertSql
+         */
+        public <E> InsertSql addAll(SqlBinder<E> binder, Collection<? extends E> entities) {
+            for (E entity : entities) {
+                add(binder, entity);
+            }
+            return this;
+        }
+
         /**
          * insert语句结束
          *
          * @return SqlBuilder
          */
         public SqlBuilder end() {
+            if (columns != null) {
+                return endRows();
+            }
             String[] keys = map.keySet().toArray(new String[0]);
             sql.append("(");
             for (int i = 0; i < keys.length; i++) {
@@ -803,6 +1646,31 @@ public class SqlBuilder {
             sql.append(")");
             return SqlBuilder.this;
         }
+
+        /**
+         * 实体行: 实体列在前, map列在后
+         */
+        private SqlBuilder endRows() {
+            String[] keys = map.keySet().toArray(new String[0]);
+            sql.append("(").append(String.join(",", columns));
+            for (String key : keys) {
+                sql.append(",").append(key);
+            }
+            sql.append(") values");
+            int width = columns.length;
+            for (int r = 0; r < rows; r++) {
+                sql.append(r > 0 ? ",(" : "(");
+                for (int i = 0, len = width + keys.length; i < len; i++) {
+                    sql.append(i > 0 ? ",?" : "?");
+                }
+                sql.append(")");
+                params.addAll(values.subList(r * width, (r + 1) * width));
+                for (String key : keys) {
+                    params.add(map.get(key));
+                }
+            }
+            return SqlBuilder.this;
+        }
     }
 
 
@@ -0,0 +1,32 @@
+package com.cyitce.sqlbuilder;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlColumn
+ * @description 实体字段对应的列
+ * @date 2026/10/19 16:20
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface SqlColumn {
+
+    /**
+     * 列名, 默认为字段名
+     *
+     * @return 列名
+     */
+    String value() default "";
+
+    /**
+     * 是否忽略该字段
+     *
+     * @return 是否忽略
+     */
+    boolean ignore() default false;
+}
@@ -0,0 +1,310 @@
+package com.cyitce.sqlbuilder;
+
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlCursor
+ * @description 流式游标查询, 结果逐行读取, 内存占用与结果集大小无关
+ * @date 2026/10/19 14:10
+ */
+public class SqlCursor {
+
+    private final Connection connection;
+    private int fetchSize = 1000;
+
+    public SqlCursor(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * 每次从数据库拉取的行数
+     * <p>
+     * MySQL驱动默认一次性读取全部结果, 未开启 useCursorFetch 时自动改为 Integer.MIN_VALUE 逐行流式读取;
+     * PostgreSQL 仅在关闭自动提交时才按 fetchSize 使用游标
+     *
+     * @param fetchSize 行数
+     * @return SqlCursor
+     */
+    public SqlCursor fetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * 流式查询, 每行转换为 列名-值 集合
+     *
+     * @param sqlBuilder 查询语句
+     * @return 行流, 使用完毕需关闭
+     * @throws SQLException 执行失败
+     */
+    public Stream<Map<String, Object>> stream(SqlBuilder sqlBuilder) throws SQLException {
+        return stream(sqlBuilder, SqlCursor::toMap);
+    }
+
+    /**
+     * 流式查询
+     *
+     * @param sqlBuilder 查询语句
+     * @param mapper     行转换
+     * @param <T>        行类型
+     * @return 行流, 使用完毕需关闭
+     * @throws SQLException 执行失败
+     */
+    public <T> Stream<T> stream(SqlBuilder sqlBuilder, RowMapper<T> mapper) throws SQLException {
+        Rows<T> rows = new Rows<>(sqlBuilder, mapper);
+        rows.open();
+        return StreamSupport.stream(rows, false).onClose(rows::close);
+    }
+
+    /**
+     * 带背压的发布者, 每次订阅打开一个独立游标, 只在订阅方请求时读取下一行
+     *
+     * @param sqlBuilder 查询语句
+     * @param executor   读取结果所在线程池
+     * @return Flow.Publisher
+     */
+    public Flow.Publisher<Map<String, Object>> publisher(SqlBuilder sqlBuilder, Executor executor) {
+        return publisher(sqlBuilder, SqlCursor::toMap, executor);
+    }
+
+    /**
+     * 带背压的发布者, 每次订阅打开一个独立游标, 只在订阅方请求时读取下一行
+     *
+     * @param sqlBuilder 查询语句
+     * @param mapper     行转换
+     * @param executor   读取结果所在线程池
+     * @param <T>        行类型
+     * @return Flow.Publisher
+     */
+    public <T> Flow.Publisher<T> publisher(SqlBuilder sqlBuilder, RowMapper<T> mapper, Executor executor) {
+        return subscriber -> subscriber.onSubscribe(new RowSubscription<>(new Rows<>(sqlBuilder, mapper), subscriber, executor));
+    }
+
+    static Map<String, Object> toMap(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int count = metaData.getColumnCount();
+        Map<String, Object> row = new LinkedHashMap<>(count * 2);
+        for (int i = 1; i <= count; i++) {
+            row.put(metaData.getColumnLabel(i), rs.getObject(i));
+        }
+        return row;
+    }
+
+    private boolean isMysql() throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        return "MySQL".equalsIgnoreCase(metaData.getDatabaseProductName())
+                && !String.valueOf(metaData.getURL()).contains("useCursorFetch=true");
+    }
+
+    /**
+     * 行转换
+     *
+     * @param <T> 行类型
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * 只进只读游标
+     */
+    private class Rows<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final SqlBuilder sqlBuilder;
+        private final RowMapper<T> mapper;
+        private PreparedStatement statement;
+        private ResultSet resultSet;
+        private boolean closed = false;
+
+        Rows(SqlBuilder sqlBuilder, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.sqlBuilder = sqlBuilder;
+            this.mapper = mapper;
+        }
+
+        void open() throws SQLException {
+            statement = connection.prepareStatement(sqlBuilder.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            try {
+                statement.setFetchSize(isMysql() ? Integer.MIN_VALUE : fetchSize);
+                sqlBuilder.bind(statement);
+                long start = System.nanoTime();
+                resultSet = statement.executeQuery();
+                SqlSampler.record(sqlBuilder, System.nanoTime() - start);
+            } catch (SQLException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * 读取下一行, 读完自动关闭
+         *
+         * @return 行, 没有更多行时返回null
+         */
+        T next() throws SQLException {
+            if (closed) {
+                return null;
+            }
+            if (!resultSet.next()) {
+                close();
+                return null;
+            }
+            return mapper.map(resultSet);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            T row;
+            try {
+                row = next();
+            } catch (SQLException e) {
+                close();
+                throw new IllegalStateException(e);
+            }
+            if (row == null) {
+                return false;
+            }
+            action.accept(row);
+            return true;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+            } catch (SQLException ignored) {
+            }
+            try {
+                if (statement != null) {
+                    statement.close();
+                }
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 按请求数量读取, 同一时刻只有一个线程操作游标
+     */
+    private static class RowSubscription<T> implements Flow.Subscription, Runnable {
+
+        private final Rows<T> rows;
+        private final Flow.Subscriber<? super T> subscriber;
+        private final Executor executor;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        /**
+         * 非法请求产生的错误, 由读取线程发出, 保证信号串行
+         */
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+        private boolean opened = false;
+        private boolean terminated = false;
+
+        RowSubscription(Rows<T> rows, Flow.Subscriber<? super T> subscriber, Executor executor) {
+            this.rows = rows;
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (error.compareAndSet(null, new IllegalArgumentException("request must be positive: " + n))) {
+                    schedule();
+                }
+                return;
+            }
+            demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (terminated || stopped()) {
+                return;
+            }
+            try {
+                if (!opened) {
+                    opened = true;
+                    rows.open();
+                }
+                while (demand.get() > 0 && !stopped()) {
+                    T row = rows.next();
+                    if (row == null) {
+                        terminated = true;
+                        cancelled.set(true);
+                        subscriber.onComplete();
+                        return;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(row);
+                }
+            } catch (SQLException | RuntimeException e) {
+                terminated = true;
+                cancelled.set(true);
+                rows.close();
+                subscriber.onError(e);
+            }
+        }
+
+        /**
+         * 已取消或有待发出的错误时关闭游标, 错误在此发出
+         */
+        private boolean stopped() {
+            Throwable e = error.get();
+            if (e == null && !cancelled.get()) {
+                return false;
+            }
+            terminated = true;
+            cancelled.set(true);
+            rows.close();
+            if (e != null) {
+                subscriber.onError(e);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.cyitce.sqlbuilder;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlEntity
+ * @description 实体标记, 编译时由SqlEntityProcessor生成 类名+SqlBinder 绑定类
+ * @date 2026/10/19 16:20
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface SqlEntity {
+
+    /**
+     * 表名, 默认为类名
+     *
+     * @return 表名
+     */
+    String value() default "";
+}
@@ -0,0 +1,190 @@
+package com.cyitce.sqlbuilder;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlEntityProcessor
+ * @description 编译时为@SqlEntity实体生成SqlBinder, 运行时无反射, 无中间Map
+ * @date 2026/10/19 16:20
+ */
+public class SqlEntityProcessor extends AbstractProcessor {
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(SqlEntity.class.getName(), SqlColumn.class.getName()));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(SqlEntity.class))) {
+            try {
+                generate(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "SqlBinder生成失败: " + e.getMessage(), type);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String table = type.getAnnotation(SqlEntity.class).value();
+        if (table.isEmpty()) {
+            table = type.getSimpleName().toString();
+        }
+        List<String> columns = new ArrayList<>();
+        List<String> getters = new ArrayList<>();
+        if (type.getKind() == ElementKind.RECORD) {
+            for (RecordComponentElement component : type.getRecordComponents()) {
+                String column = column(component.getAnnotation(SqlColumn.class), component.getSimpleName().toString());
+                if (column != null) {
+                    columns.add(column);
+                    getters.add(component.getAccessor().getSimpleName() + "()");
+                }
+            }
+        } else {
+            List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+            PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+            for (VariableElement field : fields(type)) {
+                String name = field.getSimpleName().toString();
+                String column = column(field.getAnnotation(SqlColumn.class), name);
+                if (column == null) {
+                    continue;
+                }
+                String getter = getter(methods, field, pkg);
+                if (getter == null) {
+                    if (!accessible(field, pkg)) {
+                        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "缺少getter: " + name, field);
+                        return;
+                    }
+                    getter = name;
+                }
+                columns.add(column);
+                getters.add(getter);
+            }
+        }
+        write(type, table, columns, getters);
+    }
+
+    /**
+     * 实体及其父类的实例字段, 父类字段在前; 子类同名字段覆盖父类字段
+     */
+    private static List<VariableElement> fields(TypeElement type) {
+        Deque<List<VariableElement>> levels = new ArrayDeque<>();
+        Set<String> names = new HashSet<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            List<VariableElement> level = new ArrayList<>();
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (!modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.TRANSIENT)
+                        && names.add(field.getSimpleName().toString())) {
+                    level.add(field);
+                }
+            }
+            levels.push(level);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        List<VariableElement> fields = new ArrayList<>();
+        levels.forEach(fields::addAll);
+        return fields;
+    }
+
+    /**
+     * 列名, 忽略的字段返回null
+     */
+    private static String column(SqlColumn sqlColumn, String name) {
+        if (sqlColumn == null) {
+            return name;
+        }
+        if (sqlColumn.ignore()) {
+            return null;
+        }
+        return sqlColumn.value().isEmpty() ? name : sqlColumn.value();
+    }
+
+    private String getter(List<ExecutableElement> methods, VariableElement field, PackageElement pkg) {
+        String name = field.getSimpleName().toString();
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        boolean bool = field.asType().getKind() == TypeKind.BOOLEAN;
+        for (ExecutableElement method : methods) {
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && accessible(method, pkg)
+                    && (methodName.equals("get" + suffix) || bool && methodName.equals("is" + suffix))) {
+                return methodName + "()";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 生成的绑定类与实体同包, 只能访问public成员或同包的非private成员
+     */
+    private boolean accessible(Element member, PackageElement pkg) {
+        Set<Modifier> modifiers = member.getModifiers();
+        return modifiers.contains(Modifier.PUBLIC)
+                || !modifiers.contains(Modifier.PRIVATE) && processingEnv.getElementUtils().getPackageOf(member).equals(pkg);
+    }
+
+    private void write(TypeElement type, String table, List<String> columns, List<String> getters) throws IOException {
+        String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binder = binderName(type);
+        String entity = type.getQualifiedName().toString();
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(pkg.isEmpty() ? binder : pkg + "." + binder, type);
+        try (Writer w = file.openWriter()) {
+            if (!pkg.isEmpty()) {
+                w.write("package " + pkg + ";\n\n");
+            }
+            w.write("import com.cyitce.sqlbuilder.SqlBinder;\n\n");
+            w.write("import java.util.List;\n\n");
+            w.write("/**\n * " + type.getSimpleName() + " 绑定, 由SqlEntityProcessor生成\n */\n");
+            w.write("public final class " + binder + " implements SqlBinder<" + entity + "> {\n\n");
+            w.write("    public static final " + binder + " INSTANCE = new " + binder + "();\n\n");
+            w.write("    private static final String[] COLUMNS = {");
+            for (int i = 0; i < columns.size(); i++) {
+                w.write((i > 0 ? ", " : "") + "\"" + columns.get(i).replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+            }
+            w.write("};\n\n");
+            w.write("    private " + binder + "() {\n    }\n\n");
+            w.write("    @Override\n    public String table() {\n        return \"" + table.replace("\"", "\\\"") + "\";\n    }\n\n");
+            w.write("    @Override\n    public String[] columns() {\n        return COLUMNS.clone();\n    }\n\n");
+            w.write("    @Override\n    public void bind(" + entity + " entity, List<Object> params) {\n");
+            for (String getter : getters) {
+                w.write("        params.add(entity." + getter + ");\n");
+            }
+            w.write("    }\n}\n");
+        }
+    }
+
+    /**
+     * 生成的类名, 内部类用下划线连接外部类名
+     */
+    private static String binderName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name.insert(0, enclosing.getSimpleName() + "_");
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name.append("SqlBinder").toString();
+    }
+}
@@ -0,0 +1,226 @@
+package com.cyitce.sqlbuilder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlLob
+ * @description 流式大字段参数, 绑定时才打开数据源, 通过setBinaryStream/setCharacterStream交给驱动, 不在堆中复制
+ * @date 2026/10/19 17:30
+ */
+public final class SqlLob implements Closeable {
+
+    private final boolean character;
+    private final long length;
+    private final Source source;
+    private final boolean reopenable;
+    private final String description;
+    private Closeable opened;
+
+    private SqlLob(boolean character, long length, Source source, boolean reopenable, String description) {
+        this.character = character;
+        this.length = length;
+        this.source = source;
+        this.reopenable = reopenable;
+        this.description = description;
+    }
+
+    /**
+     * 二进制流
+     *
+     * @param in     输入流, 绑定后由SqlLob关闭
+     * @param length 字节数, 未知时传-1
+     * @return SqlLob
+     */
+    public static SqlLob binary(InputStream in, long length) {
+        return new SqlLob(false, length, () -> in, false, "binary stream");
+    }
+
+    /**
+     * 字符流
+     *
+     * @param reader 字符流, 绑定后由SqlLob关闭
+     * @param length 字符数, 未知时传-1
+     * @return SqlLob
+     */
+    public static SqlLob text(Reader reader, long length) {
+        return new SqlLob(true, length, () -> reader, false, "character stream");
+    }
+
+    /**
+     * 文件内容作为二进制参数, 每次绑定时打开文件
+     *
+     * @param path 文件
+     * @return SqlLob
+     * @throws IOException 读取文件大小失败
+     */
+    public static SqlLob binary(Path path) throws IOException {
+        return new SqlLob(false, Files.size(path), () -> Files.newInputStream(path), true, path.toString());
+    }
+
+    /**
+     * 文件内容作为字符参数, 每次绑定时打开文件
+     *
+     * @param path    文件
+     * @param charset 编码
+     * @return SqlLob
+     */
+    public static SqlLob text(Path path, Charset charset) {
+        return new SqlLob(true, -1, () -> Files.newBufferedReader(path, charset), true, path.toString());
+    }
+
+    /**
+     * ByteBuffer的剩余内容作为二进制参数, 不复制数据, 不改变原buffer的位置
+     *
+     * @param buffer 数据
+     * @return SqlLob
+     */
+    public static SqlLob binary(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        return new SqlLob(false, view.remaining(), () -> new BufferInputStream(view.duplicate()), true, "buffer");
+    }
+
+    /**
+     * 以内存映射方式读取文件作为二进制参数
+     *
+     * @param path 文件
+     * @return SqlLob
+     * @throws IOException 映射失败
+     */
+    public static SqlLob mapped(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return binary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public boolean isCharacter() {
+        return character;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * 绑定到预编译语句, 文件和buffer可重复绑定, 外部传入的流只能绑定一次
+     *
+     * @param statement 预编译语句
+     * @param index     参数位置, 从1开始
+     * @throws SQLException 绑定失败
+     */
+    public void bind(PreparedStatement statement, int index) throws SQLException {
+        if (opened != null) {
+            if (!reopenable) {
+                throw new SQLException("stream parameter can only be bound once: " + description);
+            }
+            close();
+        }
+        try {
+            opened = source.open();
+        } catch (IOException e) {
+            throw new SQLException("failed to open " + description, e);
+        }
+        if (character) {
+            if (length >= 0) {
+                statement.setCharacterStream(index, (Reader) opened, length);
+            } else {
+                statement.setCharacterStream(index, (Reader) opened);
+            }
+        } else {
+            if (length >= 0) {
+                statement.setBinaryStream(index, (InputStream) opened, length);
+            } else {
+                statement.setBinaryStream(index, (InputStream) opened);
+            }
+        }
+    }
+
+    /**
+     * 语句执行完毕后关闭已打开的流
+     */
+    @Override
+    public void close() {
+        Closeable c = opened;
+        opened = reopenable ? null : c;
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 关闭参数中的所有流
+     *
+     * @param params 参数列表
+     */
+    public static void closeAll(Collection<?> params) {
+        for (Object param : params) {
+            if (param instanceof SqlLob) {
+                ((SqlLob) param).close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SqlLob(" + description + ", " + length + ")";
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        Closeable open() throws IOException;
+    }
+
+    /**
+     * 直接从ByteBuffer读取, 支持堆外及映射内存
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.cyitce.sqlbuilder;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlOptimizer
+ * @description where条件改写: 去重, 同字段or等值合并为in, 去除空括号和多余括号
+ * @date 2026/10/19 14:40
+ */
+final class SqlOptimizer {
+
+    private static final Pattern EQ = Pattern.compile("^([\\w.`\"]+)\\s*=\\s*\\?$");
+    private static final Pattern IN = Pattern.compile("^([\\w.`\"]+)\\s+in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)$", Pattern.CASE_INSENSITIVE);
+
+    private SqlOptimizer() {
+    }
+
+    /**
+     * 改写where条件, 无法识别的语句原样返回
+     *
+     * @param where  where条件(不含where关键字)
+     * @param params 条件参数
+     * @param out    改写后的参数
+     * @return 改写后的where条件
+     */
+    static String where(String where, List<Object> params, List<Object> out) {
+        Node node;
+        try {
+            Parser parser = new Parser(where, params);
+            node = parser.parseOr();
+            if (parser.pos < where.length() || parser.param != params.size()) {
+                node = null;
+            }
+        } catch (IllegalStateException e) {
+            node = null;
+        }
+        if (node == null) {
+            out.addAll(params);
+            return where;
+        }
+        node = simplify(node);
+        if (node == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        node.render(sb, out, false);
+        return sb.toString();
+    }
+
+    private static Node simplify(Node node) {
+        if (node instanceof Atom) {
+            return ((Atom) node).text.isEmpty() ? null : node;
+        }
+        Group group = (Group) node;
+        List<Node> children = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Node child : group.children) {
+            Node c = simplify(child);
+            if (c == null) {
+                continue;
+            }
+            List<Node> flat = c instanceof Group && ((Group) c).or == group.or
+                    ? ((Group) c).children : Collections.singletonList(c);
+            for (Node f : flat) {
+                if (seen.add(f.key())) {
+                    children.add(f);
+                }
+            }
+        }
+        if (group.or) {
+            children = foldIn(children);
+        }
+        if (children.isEmpty()) {
+            return null;
+        }
+        return children.size() == 1 ? children.get(0) : new Group(group.or, children);
+    }
+
+    /**
+     * 同字段的 col=? / col in (?) 合并为一个 in
+     */
+    private static List<Node> foldIn(List<Node> children) {
+        Map<String, List<Object>> values = new LinkedHashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Node child : children) {
+            String column = column(child);
+            if (column != null) {
+                values.computeIfAbsent(column, k -> new ArrayList<>()).addAll(((Atom) child).params);
+                counts.merge(column, 1, Integer::sum);
+            }
+        }
+        List<Node> result = new ArrayList<>(children.size());
+        for (Node child : children) {
+            String column = column(child);
+            if (column == null || counts.get(column) < 2) {
+                result.add(child);
+                continue;
+            }
+            List<Object> vs = values.remove(column);
+            if (vs == null) {
+                continue;
+            }
+            List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(vs));
+            StringBuilder text = new StringBuilder(column).append(" in (");
+            for (int i = 0; i < distinct.size(); i++) {
+                text.append(i > 0 ? ",?" : "?");
+            }
+            result.add(new Atom(text.append(")").toString(), distinct));
+        }
+        return result;
+    }
+
+    private static String column(Node node) {
+        if (!(node instanceof Atom)) {
+            return null;
+        }
+        String text = ((Atom) node).text;
+        Matcher m = EQ.matcher(text);
+        if (m.matches()) {
+            return m.group(1);
+        }
+        m = IN.matcher(text);
+        return m.matches() ? m.group(1) : null;
+    }
+
+    private static abstract class Node {
+        private String key;
+
+        abstract void render(StringBuilder sb, List<Object> out, boolean nested);
+
+        String key() {
+            if (key == null) {
+                StringBuilder sb = new StringBuilder();
+                List<Object> ps = new ArrayList<>();
+                render(sb, ps, false);
+                key = sb.append('\u0000').append(ps).toString();
+            }
+            return key;
+        }
+    }
+
+    private static class Atom extends Node {
+        final String text;
+        final List<Object> params;
+
+        Atom(String text, List<Object> params) {
+            this.text = text;
+            this.params = params;
+        }
+
+        @Override
+        void render(StringBuilder sb, List<Object> out, boolean nested) {
+            sb.append(text);
+            out.addAll(params);
+        }
+    }
+
+    private static class Group extends Node {
+        final boolean or;
+        final List<Node> children;
+
+        Group(boolean or, List<Node> children) {
+            this.or = or;
+            this.children = children;
+        }
+
+        @Override
+        void render(StringBuilder sb, List<Object> out, boolean nested) {
+            // and优先级高于or, 只有or组嵌套在and组中需要括号
+            boolean bracket = nested && or;
+            if (bracket) {
+                sb.append("(");
+            }
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sb.append(or ? " or " : " and ");
+                }
+                children.get(i).render(sb, out, true);
+            }
+            if (bracket) {
+                sb.append(")");
+            }
+        }
+    }
+
+    /**
+     * 递归下降解析: or := and (or and)*, and := operand (and operand)*, operand := '(' or ')' | atom
+     */
+    private static class Parser {
+        private final String s;
+        private final List<Object> params;
+        private int pos = 0;
+        private int param = 0;
+
+        Parser(String s, List<Object> params) {
+            this.s = s;
+            this.params = params;
+        }
+
+        Node parseOr() {
+            List<Node> children = new ArrayList<>();
+            children.add(parseAnd());
+            while (keyword("or")) {
+                children.add(parseAnd());
+            }
+            return children.size() == 1 ? children.get(0) : new Group(true, children);
+        }
+
+        private Node parseAnd() {
+            List<Node> children = new ArrayList<>();
+            children.add(parseOperand());
+            while (keyword("and")) {
+                children.add(parseOperand());
+            }
+            return children.size() == 1 ? children.get(0) : new Group(false, children);
+        }
+
+        private Node parseOperand() {
+            skipSpace();
+            if (pos < s.length() && s.charAt(pos) == '(') {
+                pos++;
+                Node node = parseOr();
+                skipSpace();
+                if (pos >= s.length() || s.charAt(pos) != ')') {
+                    throw new IllegalStateException("unbalanced bracket");
+                }
+                pos++;
+                // 括号后必须是连接词或结束, 否则视为表达式交给原语句
+                skipSpace();
+                if (pos < s.length() && s.charAt(pos) != ')' && !atKeyword("and") && !atKeyword("or")) {
+                    throw new IllegalStateException("unsupported expression");
+                }
+                return node;
+            }
+            return parseAtom();
+        }
+
+        private Node parseAtom() {
+            // 连接词前后缺少条件时(如append拼接的片段以and结尾), 视为空条件
+            if (atKeyword("and") || atKeyword("or")) {
+                return new Atom("", Collections.emptyList());
+            }
+            int start = pos;
+            int depth = 0;
+            boolean between = false;
+            List<Object> ps = new ArrayList<>();
+            while (pos < s.length()) {
+                char c = s.charAt(pos);
+                if (c == '\'' || c == '"' || c == '`') {
+                    int end = s.indexOf(c, pos + 1);
+                    if (end < 0) {
+                        throw new IllegalStateException("unterminated quote");
+                    }
+                    pos = end + 1;
+                    continue;
+                }
+                if (c == '?') {
+                    if (param >= params.size()) {
+                        throw new IllegalStateException("param count mismatch");
+                    }
+                    ps.add(params.get(param++));
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    if (depth == 0) {
+                        break;
+                    }
+                    depth--;
+                } else if (depth == 0 && Character.isWhitespace(c)) {
+                    int save = pos;
+                    if (atKeyword("and")) {
+                        if (!between) {
+                            pos = save;
+                            break;
+                        }
+                        between = false;
+                    } else if (atKeyword("or")) {
+                        pos = save;
+                        break;
+                    } else if (atKeyword("between")) {
+                        between = true;
+                    }
+                    pos = save;
+                }
+                pos++;
+            }
+            if (depth != 0) {
+                throw new IllegalStateException("unbalanced bracket");
+            }
+            return new Atom(s.substring(start, pos).trim().replaceAll("\\s+", " "), ps);
+        }
+
+        private boolean keyword(String word) {
+            if (!atKeyword(word)) {
+                return false;
+            }
+            skipSpace();
+            pos += word.length();
+            return true;
+        }
+
+        /**
+         * 跳过空白后是否为指定关键字, 不移动位置
+         */
+        private boolean atKeyword(String word) {
+            int i = pos;
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+                i++;
+            }
+            int end = i + word.length();
+            return end <= s.length()
+                    && s.regionMatches(true, i, word, 0, word.length())
+                    && (i == 0 || !isWord(s.charAt(i - 1)))
+                    && (end == s.length() || !isWord(s.charAt(end)));
+        }
+
+        private static boolean isWord(char c) {
+            return Character.isLetterOrDigit(c) || c == '_';
+        }
+
+        private void skipSpace() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
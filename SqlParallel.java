@@ -0,0 +1,402 @@
+package com.cyitce.sqlbuilder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <pre>
+ * List&lt;Map&lt;String, Object&gt;&gt; rows = new SqlParallel(dataSource, executor).parallelism(8).chunkSize(1000)
+ *         .query(ids, chunk -&gt; new SqlBuilder().select("*").from("user").where().in("id", chunk.toArray()).end());
+ * </pre>
+ *
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlParallel
+ * @description 大批量in查询和批量插入按块拆分, 在多个连接上并行执行
+ * @date 2026/10/19 18:20
+ */
+public class SqlParallel {
+
+    /**
+     * 分块失败后的处理方式
+     */
+    public enum Failure {
+        /**
+         * 停止领取新的分块, 抛出第一个异常
+         */
+        FAIL_FAST,
+        /**
+         * 执行完所有分块后抛出PartialFailureException, 其中带有成功部分的结果
+         */
+        CONTINUE
+    }
+
+    private final DataSource dataSource;
+    private final Executor executor;
+    private int parallelism = 4;
+    private int chunkSize = 1000;
+    private int retries = 0;
+    private boolean ordered = true;
+    private Failure failure = Failure.FAIL_FAST;
+
+    /**
+     * @param dataSource 数据源, 为RoutingDataSource时查询发往从库
+     * @param executor   执行分块的线程池, JDBC为阻塞调用, 不要使用ForkJoinPool.commonPool(), 可使用虚拟线程
+     */
+    public SqlParallel(DataSource dataSource, Executor executor) {
+        this.dataSource = dataSource;
+        this.executor = executor;
+    }
+
+    /**
+     * 最多同时使用的连接数
+     *
+     * @param parallelism 连接数
+     * @return SqlParallel
+     */
+    public SqlParallel parallelism(int parallelism) {
+        this.parallelism = Math.max(parallelism, 1);
+        return this;
+    }
+
+    /**
+     * 每块的键或行数
+     *
+     * @param chunkSize 块大小
+     * @return SqlParallel
+     */
+    public SqlParallel chunkSize(int chunkSize) {
+        this.chunkSize = Math.max(chunkSize, 1);
+        return this;
+    }
+
+    /**
+     * 每块失败后的重试次数, 重试时重新获取连接
+     *
+     * @param retries 重试次数
+     * @return SqlParallel
+     */
+    public SqlParallel retries(int retries) {
+        this.retries = Math.max(retries, 0);
+        return this;
+    }
+
+    /**
+     * 结果是否按分块顺序返回, 否则按完成顺序
+     *
+     * @param ordered 是否有序
+     * @return SqlParallel
+     */
+    public SqlParallel ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * 失败处理方式
+     *
+     * @param failure 处理方式
+     * @return SqlParallel
+     */
+    public SqlParallel failure(Failure failure) {
+        this.failure = failure;
+        return this;
+    }
+
+    /**
+     * 分块查询, 合并结果
+     *
+     * @param keys      键
+     * @param statement 根据一块键生成查询语句
+     * @param <K>       键类型
+     * @return 行列表
+     * @throws SQLException 执行失败
+     */
+    public <K> List<Map<String, Object>> query(List<K> keys, Function<List<K>, SqlBuilder> statement) throws SQLException {
+        return query(keys, statement, SqlCursor::toMap);
+    }
+
+    /**
+     * 分块查询, 合并结果
+     *
+     * @param keys      键
+     * @param statement 根据一块键生成查询语句
+     * @param mapper    行转换
+     * @param <K>       键类型
+     * @param <R>       行类型
+     * @return 行列表
+     * @throws SQLException 执行失败
+     */
+    public <K, R> List<R> query(List<K> keys, Function<List<K>, SqlBuilder> statement, SqlCursor.RowMapper<R> mapper) throws SQLException {
+        List<R> result = new ArrayList<>();
+        try {
+            query(keys, statement, mapper, result::addAll);
+        } catch (PartialFailureException e) {
+            throw new PartialFailureException(e, result);
+        }
+        return result;
+    }
+
+    /**
+     * 分块查询, 每块完成后交给sink, sink不会被并发调用; 有序时按分块顺序调用
+     *
+     * @param keys      键
+     * @param statement 根据一块键生成查询语句
+     * @param mapper    行转换
+     * @param sink      每块的结果
+     * @param <K>       键类型
+     * @param <R>       行类型
+     * @throws SQLException 执行失败
+     */
+    public <K, R> void query(List<K> keys, Function<List<K>, SqlBuilder> statement, SqlCursor.RowMapper<R> mapper,
+                             Consumer<List<R>> sink) throws SQLException {
+        run(keys, true, sink, (connection, chunk) -> {
+            SqlBuilder sqlBuilder = statement.apply(chunk);
+            List<R> rows = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(sqlBuilder.sql())) {
+                sqlBuilder.bind(ps);
+                long start = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    SqlSampler.record(sqlBuilder, System.nanoTime() - start);
+                    while (rs.next()) {
+                        rows.add(mapper.map(rs));
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * 分块执行写语句, 如批量插入
+     * <pre>
+     * parallel.update(users, chunk -&gt; new SqlBuilder().insert("user").addAll(UserSqlBinder.INSTANCE, chunk).end());
+     * </pre>
+     *
+     * @param rows      行
+     * @param statement 根据一块行生成语句
+     * @param <T>       行类型
+     * @return 影响行数
+     * @throws SQLException 执行失败
+     */
+    public <T> long update(List<T> rows, Function<List<T>, SqlBuilder> statement) throws SQLException {
+        AtomicLong count = new AtomicLong();
+        try {
+            run(rows, false, count::addAndGet, (connection, chunk) -> {
+                SqlBuilder sqlBuilder = statement.apply(chunk);
+                try (PreparedStatement ps = connection.prepareStatement(sqlBuilder.sql())) {
+                    sqlBuilder.bind(ps);
+                    long start = System.nanoTime();
+                    int updated = ps.executeUpdate();
+                    SqlSampler.record(sqlBuilder, System.nanoTime() - start);
+                    return (long) updated;
+                } finally {
+                    SqlLob.closeAll(sqlBuilder.params());
+                }
+            });
+        } catch (PartialFailureException e) {
+            throw new PartialFailureException(e, count.get());
+        }
+        return count.get();
+    }
+
+    /**
+     * 启动parallelism个任务, 每个任务持有一个连接并依次领取分块
+     */
+    private <T, R> void run(List<T> items, boolean readOnly, Consumer<R> sink, Chunk<T, R> chunk) throws SQLException {
+        int chunks = (items.size() + chunkSize - 1) / chunkSize;
+        if (chunks == 0) {
+            return;
+        }
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Exception> errors = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+        Emitter<R> emitter = new Emitter<>(sink, ordered);
+        int workers = Math.min(parallelism, chunks);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            futures[w] = CompletableFuture.runAsync(() -> {
+                Connection connection = null;
+                try {
+                    int index;
+                    while (!stop.get() && (index = next.getAndIncrement()) < chunks) {
+                        List<T> part = items.subList(index * chunkSize, Math.min(items.size(), (index + 1) * chunkSize));
+                        for (int attempt = 0; ; attempt++) {
+                            try {
+                                if (connection == null) {
+                                    connection = connection(readOnly);
+                                }
+                                emitter.emit(index, chunk.execute(connection, part));
+                                break;
+                            } catch (SQLException e) {
+                                close(connection);
+                                connection = null;
+                                if (attempt < retries) {
+                                    continue;
+                                }
+                                errors.add(e);
+                                failed.add(index);
+                                emitter.skip(index);
+                                if (failure == Failure.FAIL_FAST) {
+                                    stop.set(true);
+                                }
+                                break;
+                            } catch (RuntimeException e) {
+                                // 语句生成或行转换出错, 重试无意义
+                                errors.add(e);
+                                failed.add(index);
+                                emitter.skip(index);
+                                if (failure == Failure.FAIL_FAST) {
+                                    stop.set(true);
+                                }
+                                break;
+                            }
+                        }
+                    }
+                } finally {
+                    close(connection);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        if (errors.isEmpty()) {
+            return;
+        }
+        Exception first = errors.get(0);
+        if (failure == Failure.FAIL_FAST) {
+            for (int i = 1; i < errors.size(); i++) {
+                first.addSuppressed(errors.get(i));
+            }
+            if (first instanceof SQLException) {
+                throw (SQLException) first;
+            }
+            throw (RuntimeException) first;
+        }
+        PartialFailureException e = new PartialFailureException(failed, first, null);
+        for (int i = 1; i < errors.size(); i++) {
+            e.addSuppressed(errors.get(i));
+        }
+        throw e;
+    }
+
+    private Connection connection(boolean readOnly) throws SQLException {
+        if (dataSource instanceof RoutingDataSource) {
+            return ((RoutingDataSource) dataSource).getConnection(readOnly);
+        }
+        return dataSource.getConnection();
+    }
+
+    private static void close(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Chunk<T, R> {
+        R execute(Connection connection, List<T> chunk) throws SQLException;
+    }
+
+    /**
+     * 串行调用sink, 有序时缓存提前完成的分块
+     */
+    private static class Emitter<R> {
+        private final Consumer<R> sink;
+        private final boolean ordered;
+        private final Map<Integer, Optional<R>> pending = new HashMap<>();
+        private int next = 0;
+
+        Emitter(Consumer<R> sink, boolean ordered) {
+            this.sink = sink;
+            this.ordered = ordered;
+        }
+
+        synchronized void emit(int index, R result) {
+            if (!ordered) {
+                sink.accept(result);
+                return;
+            }
+            pending.put(index, Optional.of(result));
+            flush();
+        }
+
+        synchronized void skip(int index) {
+            if (ordered) {
+                pending.put(index, Optional.empty());
+                flush();
+            }
+        }
+
+        private void flush() {
+            Optional<R> result;
+            while ((result = pending.remove(next)) != null) {
+                result.ifPresent(sink);
+                next++;
+            }
+        }
+    }
+
+    /**
+     * CONTINUE模式下部分分块失败
+     */
+    public static class PartialFailureException extends SQLException {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Integer> failedChunks;
+        private final Object partialResult;
+
+        PartialFailureException(List<Integer> failedChunks, Exception cause, Object partialResult) {
+            super(failedChunks.size() + " chunk(s) failed: " + cause.getMessage(),
+                    cause instanceof SQLException ? ((SQLException) cause).getSQLState() : null,
+                    cause instanceof SQLException ? ((SQLException) cause).getErrorCode() : 0, cause);
+            this.failedChunks = new ArrayList<>(failedChunks);
+            Collections.sort(this.failedChunks);
+            this.partialResult = partialResult;
+        }
+
+        PartialFailureException(PartialFailureException e, Object partialResult) {
+            this(e.failedChunks, (Exception) e.getCause(), partialResult);
+            for (Throwable suppressed : e.getSuppressed()) {
+                addSuppressed(suppressed);
+            }
+        }
+
+        /**
+         * 失败的分块序号
+         *
+         * @return 序号列表
+         */
+        public List<Integer> getFailedChunks() {
+            return failedChunks;
+        }
+
+        /**
+         * 成功分块的结果: 查询为行列表, 更新为影响行数
+         *
+         * @return 结果
+         */
+        public Object getPartialResult() {
+            return partialResult;
+        }
+    }
+}
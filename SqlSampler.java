@@ -0,0 +1,247 @@
+package com.cyitce.sqlbuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author jianhongyu
+ * @version 1.0
+ * @className SqlSampler
+ * @description 慢查询采样, 按语句指纹记录到内存环形缓冲区, 未开启时只有一次volatile读取
+ * @date 2026/10/19 15:50
+ */
+public final class SqlSampler {
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static volatile boolean enabled = false;
+    private static volatile double rate = 0;
+    private static volatile long slowNanos = Long.MAX_VALUE;
+    private static volatile AtomicReferenceArray<Sample> samples = new AtomicReferenceArray<>(0);
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private SqlSampler() {
+    }
+
+    /**
+     * 开启采样
+     *
+     * @param rate       采样比例 0~1
+     * @param slowMillis 超过该耗时的语句始终记录
+     * @param capacity   缓冲区大小, 写满后覆盖最早的记录
+     */
+    public static synchronized void enable(double rate, long slowMillis, int capacity) {
+        SqlSampler.rate = rate;
+        SqlSampler.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        SqlSampler.samples = new AtomicReferenceArray<>(Math.max(capacity, 1));
+        sequence.set(0);
+        enabled = true;
+    }
+
+    /**
+     * 关闭采样, 保留已有记录
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 调用方代码位置, 跳过本库的类
+     *
+     * @return 代码位置, 未开启时返回null
+     */
+    static String callSite() {
+        if (!enabled) {
+            return null;
+        }
+        return WALKER.walk(frames -> frames
+                .filter(f -> !isLibrary(f.getClassName()))
+                .findFirst()
+                .map(f -> f.getClassName() + "." + f.getMethodName() + "(" + f.getFileName() + ":" + f.getLineNumber() + ")")
+                .orElse(null));
+    }
+
+    private static boolean isLibrary(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        return className.startsWith("com.cyitce.sqlbuilder.")
+                && (name.startsWith("SqlBuilder") || name.startsWith("SqlCursor")
+                || name.startsWith("SqlSampler") || name.startsWith("SqlOptimizer"));
+    }
+
+    /**
+     * 记录一次执行, 超过慢查询阈值必定记录, 否则按比例采样
+     *
+     * @param sqlBuilder 执行的语句
+     * @param nanos      耗时(纳秒)
+     */
+    public static void record(SqlBuilder sqlBuilder, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        if (nanos < slowNanos && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        String sql = sqlBuilder.sql();
+        AtomicReferenceArray<Sample> buffer = samples;
+        Sample sample = new Sample(sqlBuilder.fingerprint(), sql, sqlBuilder.callSite(), sqlBuilder.params().size(), nanos);
+        buffer.set((int) (sequence.getAndIncrement() % buffer.length()), sample);
+    }
+
+    /**
+     * 当前缓冲区中的记录
+     *
+     * @return 记录列表
+     */
+    public static List<Sample> samples() {
+        AtomicReferenceArray<Sample> buffer = samples;
+        List<Sample> list = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            Sample sample = buffer.get(i);
+            if (sample != null) {
+                list.add(sample);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 按总耗时排序的前n个语句指纹
+     *
+     * @param n 数量
+     * @return 统计列表
+     */
+    public static List<Stat> top(int n) {
+        Map<Long, Stat> stats = new HashMap<>();
+        for (Sample sample : samples()) {
+            stats.computeIfAbsent(sample.fingerprint, k -> new Stat(sample)).add(sample);
+        }
+        List<Stat> list = new ArrayList<>(stats.values());
+        list.sort(Comparator.comparingLong(Stat::getTotalNanos).reversed());
+        return list.subList(0, Math.min(n, list.size()));
+    }
+
+    /**
+     * 导出统计及记录到本地文件, 以制表符分隔
+     *
+     * @param path 文件路径
+     * @throws IOException 写入失败
+     */
+    public static void dump(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# fingerprint\tcount\ttotal_us\tmax_us\tcall_site\tsql");
+            writer.newLine();
+            for (Stat stat : top(Integer.MAX_VALUE)) {
+                writer.write(Long.toHexString(stat.fingerprint) + "\t" + stat.count + "\t" + stat.totalNanos / 1000
+                        + "\t" + stat.maxNanos / 1000 + "\t" + stat.callSite + "\t" + stat.sql);
+                writer.newLine();
+            }
+            writer.write("# fingerprint\tlatency_us\tparams\tcall_site\tsql");
+            writer.newLine();
+            for (Sample sample : samples()) {
+                writer.write(Long.toHexString(sample.fingerprint) + "\t" + sample.nanos / 1000 + "\t" + sample.paramCount
+                        + "\t" + sample.callSite + "\t" + sample.sql);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * 单次执行记录
+     */
+    public static final class Sample {
+        private final long fingerprint;
+        private final String sql;
+        private final String callSite;
+        private final int paramCount;
+        private final long nanos;
+
+        Sample(long fingerprint, String sql, String callSite, int paramCount, long nanos) {
+            this.fingerprint = fingerprint;
+            this.sql = sql;
+            this.callSite = callSite;
+            this.paramCount = paramCount;
+            this.nanos = nanos;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public String getCallSite() {
+            return callSite;
+        }
+
+        public int getParamCount() {
+            return paramCount;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * 同一指纹的汇总
+     */
+    public static final class Stat {
+        private final long fingerprint;
+        private final String sql;
+        private final String callSite;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        Stat(Sample sample) {
+            this.fingerprint = sample.fingerprint;
+            this.sql = sample.sql;
+            this.callSite = sample.callSite;
+        }
+
+        private Stat add(Sample sample) {
+            count++;
+            totalNanos += sample.nanos;
+            maxNanos = Math.max(maxNanos, sample.nanos);
+            return this;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public String getCallSite() {
+            return callSite;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
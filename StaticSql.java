@@ -0,0 +1,142 @@
+package com.cyitce.sqlbuilder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <pre>
+ * private static final StaticSql FIND = StaticSql.of(new SqlBuilder()
+ *         .select("*").from("user").where().eq("tenant", StaticSql.arg(0)).and().eq("id", StaticSql.arg(1)).end());
+ *
+ * FIND.sql(); FIND.params(tenant, id);
+ * </pre>
+ *
+ * @author jianhongyu
+ * @version 1.0
+ * @className StaticSql
+ * @description 结构固定的语句, 在类初始化时构建一次得到常量sql, 之后每次执行只替换参数
+ * @date 2026/10/19 16:50
+ */
+public final class StaticSql {
+
+    private final String sql;
+    private final long fingerprint;
+    private final Object[] params;
+    /**
+     * params中参数占位的位置及对应的实参下标
+     */
+    private final int[] slots;
+    private final int[] args;
+    private final int argCount;
+
+    private StaticSql(SqlBuilder sqlBuilder) {
+        this.sql = sqlBuilder.sql();
+        this.fingerprint = sqlBuilder.fingerprint();
+        this.params = sqlBuilder.params().toArray();
+        int count = 0;
+        for (Object param : params) {
+            if (param instanceof Arg) {
+                count++;
+            }
+        }
+        this.slots = new int[count];
+        this.args = new int[count];
+        int max = -1;
+        for (int i = 0, j = 0; i < params.length; i++) {
+            if (params[i] instanceof Arg) {
+                slots[j] = i;
+                args[j] = ((Arg) params[i]).index;
+                max = Math.max(max, args[j]);
+                j++;
+            }
+        }
+        this.argCount = max + 1;
+    }
+
+    /**
+     * 固定语句
+     *
+     * @param sqlBuilder 使用arg(n)作为参数占位的语句
+     * @return StaticSql
+     */
+    public static StaticSql of(SqlBuilder sqlBuilder) {
+        return new StaticSql(sqlBuilder);
+    }
+
+    /**
+     * 参数占位, 执行时替换为第index个实参
+     *
+     * @param index 实参下标
+     * @return 占位
+     */
+    public static Object arg(int index) {
+        return new Arg(index);
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * 参数列表, 常量参数保持构建时的值
+     *
+     * @param args 实参
+     * @return 参数列表
+     */
+    public List<Object> params(Object... args) {
+        if (args.length < argCount) {
+            throw new IllegalArgumentException("expected " + argCount + " args but got " + args.length);
+        }
+        Object[] values = params.clone();
+        for (int i = 0; i < slots.length; i++) {
+            values[slots[i]] = args[this.args[i]];
+        }
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
+    /**
+     * 绑定参数到预编译语句
+     *
+     * @param statement 预编译语句
+     * @param args      实参
+     * @throws SQLException 绑定失败
+     */
+    public void bind(PreparedStatement statement, Object... args) throws SQLException {
+        SqlBuilder.bind(statement, params(args));
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    private static final class Arg {
+        private final int index;
+
+        Arg(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Arg && ((Arg) o).index == index;
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "arg(" + index + ")";
+        }
+    }
+}
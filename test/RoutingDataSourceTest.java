@@ -0,0 +1,162 @@
+package com.cyitce.sqlbuilder;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 需要junit-jupiter和h2:
+ * <pre>
+ * javac -encoding UTF-8 -d out *.java
+ * javac -encoding UTF-8 -cp out:junit-platform-console-standalone.jar:h2.jar -d test-out test/*.java
+ * java -jar junit-platform-console-standalone.jar -cp out:test-out:h2.jar --select-class com.cyitce.sqlbuilder.RoutingDataSourceTest
+ * </pre>
+ *
+ * @author jianhongyu
+ * @version 1.0
+ * @className RoutingDataSourceTest
+ * @description 用多个H2内存库作为主库和从库, 验证读写分离路由
+ * @date 2026/10/19 20:30
+ */
+class RoutingDataSourceTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static final SqlBuilder READ = new SqlBuilder().select("name").from("node").end();
+    private static final SqlBuilder WRITE = new SqlBuilder().update("node").set("name", "x").where().eq("name", "y").end();
+
+    /**
+     * 创建一个内存库, 表node中只有一行, 值为库名
+     */
+    private static DataSource database(String name) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table node(name varchar(16))");
+            statement.execute("insert into node values('" + name + "')");
+        }
+        return dataSource;
+    }
+
+    /**
+     * 不存在的库, 获取连接失败
+     */
+    private static DataSource down() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:down" + DATABASES.incrementAndGet() + ";IFEXISTS=TRUE");
+        return dataSource;
+    }
+
+    /**
+     * 执行查询的库
+     */
+    private static String route(RoutingDataSource dataSource, SqlBuilder sqlBuilder) throws SQLException {
+        try (Connection connection = dataSource.getConnection(sqlBuilder);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select name from node")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static List<String> routes(RoutingDataSource dataSource, SqlBuilder sqlBuilder, int times) throws SQLException {
+        List<String> routes = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            routes.add(route(dataSource, sqlBuilder));
+        }
+        return routes;
+    }
+
+    @Test
+    void roundRobin() throws SQLException {
+        RoutingDataSource dataSource = new RoutingDataSource(database("primary"),
+                Arrays.asList(database("r1"), database("r2")), RoutingDataSource.Balance.ROUND_ROBIN, 0);
+        assertEquals(Arrays.asList("r1", "r2", "r1", "r2"), routes(dataSource, READ, 4));
+        assertEquals("primary", route(dataSource, WRITE));
+    }
+
+    @Test
+    void stickyReadAfterWrite() throws Exception {
+        RoutingDataSource dataSource = new RoutingDataSource(database("primary"),
+                Arrays.asList(database("r1")), RoutingDataSource.Balance.ROUND_ROBIN, 200);
+        assertEquals("r1", route(dataSource, READ));
+        assertEquals("primary", route(dataSource, WRITE));
+        assertEquals("primary", route(dataSource, READ));
+        Thread.sleep(300);
+        assertEquals("r1", route(dataSource, READ));
+    }
+
+    @Test
+    void stickyIsPerThread() throws Exception {
+        RoutingDataSource dataSource = new RoutingDataSource(database("primary"),
+                Arrays.asList(database("r1")), RoutingDataSource.Balance.ROUND_ROBIN, 60_000);
+        dataSource.markWrite();
+        assertEquals("primary", route(dataSource, READ));
+        String[] other = new String[1];
+        Thread thread = new Thread(() -> {
+            try {
+                other[0] = route(dataSource, READ);
+            } catch (SQLException e) {
+                other[0] = e.toString();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals("r1", other[0]);
+    }
+
+    @Test
+    void plainConnectionDoesNotStick() throws SQLException {
+        RoutingDataSource dataSource = new RoutingDataSource(database("primary"),
+                Arrays.asList(database("r1")), RoutingDataSource.Balance.ROUND_ROBIN, 60_000);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select name from node")) {
+            rs.next();
+            assertEquals("primary", rs.getString(1));
+        }
+        assertEquals("r1", route(dataSource, READ));
+    }
+
+    @Test
+    void failover() throws SQLException {
+        RoutingDataSource dataSource = new RoutingDataSource(database("primary"),
+                Arrays.asList(down(), database("r2")), RoutingDataSource.Balance.ROUND_ROBIN, 0);
+        assertEquals(Arrays.asList("r2", "r2", "r2"), routes(dataSource, READ, 3));
+
+        RoutingDataSource allDown = new RoutingDataSource(database("primary"),
+                Arrays.asList(down(), down()), RoutingDataSource.Balance.ROUND_ROBIN, 0);
+        assertEquals("primary", route(allDown, READ));
+    }
+
+    @Test
+    void leastLatencySkipsFailedReplica() throws SQLException {
+        RoutingDataSource dataSource = new RoutingDataSource(database("primary"),
+                Arrays.asList(down(), database("r2"), database("r3")), RoutingDataSource.Balance.LEAST_LATENCY, 0);
+        for (String route : routes(dataSource, READ, 10)) {
+            assertNotEquals("primary", route);
+        }
+    }
+
+    @Test
+    void readOnly() {
+        assertTrue(SqlBuilder.isReadOnly("select * from t # for update", Dialect.MYSQL));
+        assertFalse(SqlBuilder.isReadOnly("select data #> '{a}' from t where x = 1; delete from t", Dialect.POSTGRESQL));
+        assertFalse(SqlBuilder.isReadOnly("select 1; select 2"));
+        assertTrue(SqlBuilder.isReadOnly("select 1; -- done"));
+        assertFalse(SqlBuilder.isReadOnly("select * from t for update"));
+        assertTrue(READ.isReadOnly());
+        assertFalse(WRITE.isReadOnly());
+    }
+}